@@ -0,0 +1,54 @@
+package com.giuseppe.spring.jdbc.mysql.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Dimensiona il pool Hikari in base ai core disponibili e al profilo di latenza delle query.
+ *
+ * <p>La dimensione è {@code core * (1 + attesa/calcolo)}, dove il rapporto
+ * {@code tutorials.datasource.pool.wait-compute-ratio} indica quanto tempo una connessione
+ * passa ad aspettare il database rispetto al tempo speso in CPU. Con H2 in memoria l'attesa
+ * è quasi nulla; con un database remoto va alzato in proporzione alla latenza di rete.
+ * Il risultato è limitato a {@code tutorials.datasource.pool.max-size}.</p>
+ *
+ * <p>Attivo solo con {@code tutorials.datasource.pool.auto-size=true}; in quel caso
+ * sovrascrive {@code spring.datasource.hikari.maximum-pool-size}.</p>
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "tutorials.datasource.pool.auto-size", havingValue = "true")
+public class DataSourcePoolConfig {
+
+  private static final Logger log = LoggerFactory.getLogger(DataSourcePoolConfig.class);
+
+  // Statico: i BeanPostProcessor vanno registrati prima degli altri bean della configurazione
+  @Bean
+  static BeanPostProcessor hikariPoolSizer(Environment environment) {
+    double waitComputeRatio = environment.getProperty("tutorials.datasource.pool.wait-compute-ratio", Double.class, 1.0);
+    int maxSize = environment.getProperty("tutorials.datasource.pool.max-size", Integer.class, 32);
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+          int size = poolSize(Runtime.getRuntime().availableProcessors(), waitComputeRatio, maxSize);
+          dataSource.setMaximumPoolSize(size);
+          // Pool fisso: niente creazione di connessioni sotto carico
+          dataSource.setMinimumIdle(size);
+          log.info("Hikari pool '{}' sized to {} connections", dataSource.getPoolName(), size);
+        }
+        return bean;
+      }
+    };
+  }
+
+  static int poolSize(int cores, double waitComputeRatio, int maxSize) {
+    int size = (int) Math.ceil(cores * (1 + Math.max(waitComputeRatio, 0)));
+    return Math.max(2, Math.min(size, maxSize));
+  }
+}
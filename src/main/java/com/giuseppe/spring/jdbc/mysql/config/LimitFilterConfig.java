@@ -0,0 +1,45 @@
+package com.giuseppe.spring.jdbc.mysql.config;
+
+import com.giuseppe.spring.jdbc.mysql.filter.TutorialLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Registra {@link TutorialLimitFilter} sugli endpoint {@code /api/tutorials}.
+ * Disattivabile con {@code tutorials.limits.enabled=false}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "tutorials.limits.enabled", havingValue = "true", matchIfMissing = true)
+public class LimitFilterConfig {
+
+  @Bean
+  public FilterRegistrationBean<TutorialLimitFilter> tutorialLimitFilter(
+          MeterRegistry meterRegistry,
+          @Value("${tutorials.limits.rate.capacity:100}") double rateCapacity,
+          @Value("${tutorials.limits.rate.per-second:50}") double ratePerSecond,
+          @Value("${tutorials.limits.rate.max-clients:10000}") int maxClients,
+          @Value("${tutorials.limits.rate.overflow:evict-lru}") TutorialLimitFilter.OverflowPolicy overflowPolicy,
+          @Value("${tutorials.limits.concurrency.initial:20}") int initialLimit,
+          @Value("${tutorials.limits.concurrency.min:10}") int minLimit,
+          @Value("${tutorials.limits.concurrency.max:200}") int maxLimit,
+          @Value("${tutorials.limits.concurrency.window:100ms}") Duration window,
+          @Value("${tutorials.limits.concurrency.expensive:GET /api/tutorials,DELETE /api/tutorials}") Set<String> expensiveEndpoints,
+          @Value("${tutorials.limits.concurrency.expensive-min:1}") int expensiveMinLimit,
+          @Value("${tutorials.limits.concurrency.expensive-max:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int expensiveMaxLimit) {
+    TutorialLimitFilter filter = new TutorialLimitFilter(meterRegistry, rateCapacity, ratePerSecond, maxClients,
+            overflowPolicy, initialLimit, minLimit, maxLimit, window.toNanos(), expensiveEndpoints, expensiveMinLimit,
+            expensiveMaxLimit);
+    FilterRegistrationBean<TutorialLimitFilter> registration = new FilterRegistrationBean<>(filter);
+    registration.addUrlPatterns("/api/tutorials", "/api/tutorials/*");
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+    return registration;
+  }
+}
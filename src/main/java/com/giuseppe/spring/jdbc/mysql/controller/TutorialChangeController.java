@@ -0,0 +1,154 @@
+package com.giuseppe.spring.jdbc.mysql.controller;
+
+import com.giuseppe.spring.jdbc.mysql.model.TutorialChange;
+import com.giuseppe.spring.jdbc.mysql.model.TutorialChangeFeed;
+import com.giuseppe.spring.jdbc.mysql.service.api.ITutorialChangeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Controller REST che espone il feed delle modifiche sui tutorials, così che i consumer
+ * ricevano solo le differenze invece di rileggere periodicamente {@code GET /api/tutorials}.
+ *
+ * <p>
+ * Endpoints disponibili:
+ * <ul>
+ *   <li>GET /api/tutorials/changes?since=&amp;wait= - Long-poll: restituisce le modifiche successive a
+ *       {@code since}, attendendo fino a {@code wait} secondi se non ce ne sono.</li>
+ *   <li>GET /api/tutorials/changes?since= con {@code Accept: text/event-stream} - Server-Sent Events:
+ *       invia le modifiche successive a {@code since} e poi quelle nuove man mano che avvengono.
+ *       Supporta la ripresa tramite l'header {@code Last-Event-ID}.</li>
+ * </ul>
+ * </p>
+ */
+@RestController
+@RequestMapping("/api")
+public class TutorialChangeController {
+
+  private static final int MAX_LIMIT = 1000;
+
+  private final ITutorialChangeService changeService;
+  private final Duration maxWait;
+  private final Duration streamTimeout;
+
+  /**
+   * Costruttore per l'iniezione del service e della configurazione.
+   *
+   * @param changeService il servizio per la lettura del feed delle modifiche
+   * @param maxWait       attesa massima concessa a una richiesta long-poll
+   * @param streamTimeout durata massima di uno stream SSE prima che il client debba riconnettersi
+   */
+  public TutorialChangeController(ITutorialChangeService changeService,
+                                  @Value("${tutorials.changes.max-wait:25s}") Duration maxWait,
+                                  @Value("${tutorials.changes.stream-timeout:30m}") Duration streamTimeout) {
+    this.changeService = changeService;
+    this.maxWait = maxWait;
+    this.streamTimeout = streamTimeout;
+  }
+
+  /**
+   * Recupera le modifiche successive a {@code since} in modalità long-poll.
+   *
+   * @param since Ultimo numero di sequenza già ricevuto (al primo accesso {@code 0}: si riceve {@code resetRequired} con la sequenza da cui partire).
+   * @param wait  Secondi di attesa se non ci sono modifiche; {@code 0} per rispondere subito.
+   *              Il valore viene limitato a {@code tutorials.changes.max-wait}.
+   * @param limit Numero massimo di modifiche da restituire (al massimo 1000).
+   * @return ResponseEntity contenente il feed con status HTTP 200; il campo {@code lastSequence}
+   *         va usato come {@code since} della richiesta successiva. Se {@code resetRequired} è
+   *         {@code true} lo storico richiesto non è più disponibile e va riletta l'intera lista.
+   */
+  @GetMapping(value = "/tutorials/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+  public CompletableFuture<ResponseEntity<TutorialChangeFeed>> getChanges(
+          @RequestParam(defaultValue = "0") long since,
+          @RequestParam(defaultValue = "0") long wait,
+          @RequestParam(defaultValue = "" + MAX_LIMIT) int limit) {
+    Duration timeout = Duration.ofSeconds(Math.max(wait, 0));
+    if (timeout.compareTo(maxWait) > 0) {
+      timeout = maxWait;
+    }
+    return changeService.awaitChanges(since, clampLimit(limit), timeout)
+            .thenApply(feed -> new ResponseEntity<>(feed, HttpStatus.OK));
+  }
+
+  /**
+   * Apre uno stream Server-Sent Events con le modifiche successive a {@code since}.
+   * Ogni modifica è inviata come evento {@code change} con id pari al numero di sequenza;
+   * se lo storico richiesto non è più disponibile viene inviato un evento {@code reset}.
+   *
+   * @param since       Ultimo numero di sequenza già ricevuto (al primo accesso {@code 0}: si riceve {@code resetRequired} con la sequenza da cui partire).
+   * @param lastEventId Header inviato dal browser alla riconnessione; se presente ha la precedenza su {@code since}.
+   * @return l'emitter SSE associato alla richiesta.
+   */
+  @GetMapping(value = "/tutorials/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamChanges(
+          @RequestParam(defaultValue = "0") long since,
+          @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+    SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+    ChangeStream stream = new ChangeStream(emitter, lastEventId != null ? lastEventId : since);
+    emitter.onCompletion(() -> changeService.removeListener(stream));
+    emitter.onTimeout(() -> changeService.removeListener(stream));
+    emitter.onError(e -> changeService.removeListener(stream));
+    changeService.addListener(stream);
+    // Replay dello storico; le modifiche successive arrivano tramite il listener
+    stream.run();
+    return emitter;
+  }
+
+  private static int clampLimit(int limit) {
+    return limit < 1 || limit > MAX_LIMIT ? MAX_LIMIT : limit;
+  }
+
+  /**
+   * Invia all'emitter tutte le modifiche non ancora trasmesse. Il servizio non lo esegue mai su
+   * più thread insieme, ma il replay iniziale sul thread della richiesta può sovrapporsi alla prima
+   * notifica: per questo è sincronizzato, e il cursore garantisce che ogni modifica sia inviata una
+   * sola volta e in ordine.
+   */
+  private final class ChangeStream implements Runnable {
+
+    private final SseEmitter emitter;
+    private long cursor;
+
+    ChangeStream(SseEmitter emitter, long since) {
+      this.emitter = emitter;
+      this.cursor = since;
+    }
+
+    @Override
+    public synchronized void run() {
+      try {
+        TutorialChangeFeed feed;
+        do {
+          feed = changeService.getChanges(cursor, MAX_LIMIT);
+          if (feed.isResetRequired()) {
+            emitter.send(SseEmitter.event()
+                    .name("reset")
+                    .id(Long.toString(feed.getLastSequence()))
+                    .data(feed, MediaType.APPLICATION_JSON));
+          }
+          for (TutorialChange change : feed.getChanges()) {
+            emitter.send(SseEmitter.event()
+                    .name("change")
+                    .id(Long.toString(change.getSequence()))
+                    .data(change, MediaType.APPLICATION_JSON));
+          }
+          cursor = feed.getLastSequence();
+        } while (feed.getChanges().size() == MAX_LIMIT);
+      } catch (IOException e) {
+        changeService.removeListener(this);
+        emitter.completeWithError(e);
+      } catch (IllegalStateException e) {
+        // L'emitter è già stato chiuso
+        changeService.removeListener(this);
+      }
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package com.giuseppe.spring.jdbc.mysql.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limite di concorrenza adattivo basato sul gradiente della latenza.
+ *
+ * <p>Le latenze vengono raccolte in finestre di {@code windowNanos}. Alla chiusura di ogni
+ * finestra si confronta la latenza media della finestra con una latenza di riferimento, che scende
+ * subito alle latenze più basse osservate e sale solo lentamente: se la latenza supera la
+ * tolleranza (coda che si forma a valle) il limite scende in proporzione, altrimenti cresce di
+ * circa {@code sqrt(limit)}. Il limite non cresce se la finestra non lo ha usato almeno per metà,
+ * per evitare che salga senza che sia stato messo alla prova.</p>
+ *
+ * <p>Acquisizione e rilascio sono senza lock; il ricalcolo è fatto da un solo thread per
+ * finestra, quello che vince il compare-and-set sull'istante della prossima finestra. Limite e
+ * latenza di riferimento sono pubblicati insieme in uno stato immutabile, così il thread della
+ * finestra successiva legge sempre una coppia coerente.</p>
+ */
+public class AdaptiveConcurrencyLimit {
+
+  // Tolleranza sull'aumento di latenza prima di ridurre il limite
+  private static final double TOLERANCE = 1.2;
+  private static final double SMOOTHING = 0.2;
+  // Risalita lenta del riferimento, per adattarsi a un cambio reale del carico di lavoro
+  private static final double BASELINE_ALPHA = 1.0 / 600;
+
+  private record State(double limit, double baselineRtt) {
+  }
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final long windowNanos;
+
+  private final AtomicInteger inflight = new AtomicInteger();
+  private final AtomicInteger maxInflight = new AtomicInteger();
+  private final LongAdder rttSum = new LongAdder();
+  private final LongAdder rttCount = new LongAdder();
+  private final AtomicLong nextUpdate;
+
+  private final AtomicReference<State> state;
+
+  public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long windowNanos, long now) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.windowNanos = windowNanos;
+    this.state = new AtomicReference<>(new State(Math.max(minLimit, Math.min(initialLimit, maxLimit)), 0));
+    this.nextUpdate = new AtomicLong(now + windowNanos);
+  }
+
+  /**
+   * @return {@code true} se la richiesta può procedere; in quel caso va chiamato {@link #release}
+   */
+  public boolean tryAcquire() {
+    while (true) {
+      int current = inflight.get();
+      if (current >= getLimit()) {
+        return false;
+      }
+      if (inflight.compareAndSet(current, current + 1)) {
+        maxInflight.accumulateAndGet(current + 1, Math::max);
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Rilascia un permesso e registra la latenza osservata.
+   *
+   * @param rttNanos latenza della richiesta
+   * @param sample   {@code false} per le richieste fallite, la cui latenza non è significativa
+   * @param now      istante corrente in nanosecondi
+   */
+  public void release(long rttNanos, boolean sample, long now) {
+    inflight.decrementAndGet();
+    if (sample) {
+      rttSum.add(rttNanos);
+      rttCount.increment();
+    }
+    long next = nextUpdate.get();
+    if (now >= next && nextUpdate.compareAndSet(next, now + windowNanos)) {
+      update();
+    }
+  }
+
+  public int getLimit() {
+    return (int) state.get().limit();
+  }
+
+  public int getInflight() {
+    return inflight.get();
+  }
+
+  private void update() {
+    long count = rttCount.sumThenReset();
+    long sum = rttSum.sumThenReset();
+    int used = maxInflight.getAndSet(inflight.get());
+    if (count == 0) {
+      return;
+    }
+    double shortRtt = (double) sum / count;
+    State previous = state.get();
+    double baselineRtt = previous.baselineRtt();
+    if (baselineRtt == 0 || shortRtt < baselineRtt) {
+      baselineRtt = shortRtt;
+    } else {
+      baselineRtt += (shortRtt - baselineRtt) * BASELINE_ALPHA;
+    }
+
+    double current = previous.limit();
+    double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineRtt / shortRtt));
+    double next = current;
+    if (gradient < 1.0) {
+      next = current * (1 - SMOOTHING) + current * gradient * SMOOTHING;
+    } else if (used >= current / 2) {
+      next = current * (1 - SMOOTHING) + (current + Math.sqrt(current)) * SMOOTHING;
+    }
+    state.set(new State(Math.max(minLimit, Math.min(next, maxLimit)), baselineRtt));
+  }
+}
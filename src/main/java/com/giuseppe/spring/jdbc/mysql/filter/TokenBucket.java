@@ -0,0 +1,58 @@
+package com.giuseppe.spring.jdbc.mysql.filter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token bucket senza lock: lo stato (token disponibili e istante dell'ultima ricarica)
+ * è immutabile e viene sostituito con compare-and-set.
+ */
+public class TokenBucket {
+
+  private record State(double tokens, long timestamp) {
+  }
+
+  private final double capacity;
+  private final double tokensPerNano;
+  private final AtomicReference<State> state;
+
+  public TokenBucket(double capacity, double tokensPerSecond, long now) {
+    this.capacity = capacity;
+    this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+    this.state = new AtomicReference<>(new State(capacity, now));
+  }
+
+  /**
+   * Prova a consumare un token.
+   *
+   * @param now istante corrente in nanosecondi ({@link System#nanoTime()})
+   * @return {@code 0} se il token è stato consumato, altrimenti i nanosecondi da attendere
+   *         prima che un token sia disponibile
+   */
+  public long tryAcquire(long now) {
+    while (true) {
+      State current = state.get();
+      double tokens = Math.min(capacity, current.tokens + Math.max(0, now - current.timestamp) * tokensPerNano);
+      if (tokens < 1) {
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+      }
+      if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.timestamp)))) {
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * @return istante, in nanosecondi, dell'ultimo token consumato (o della creazione)
+   */
+  public long getLastUsed() {
+    return state.get().timestamp;
+  }
+
+  /**
+   * @return {@code true} se il bucket non viene usato da almeno {@code idleNanos}
+   */
+  public boolean isIdle(long now, long idleNanos) {
+    return now - state.get().timestamp > idleNanos;
+  }
+}
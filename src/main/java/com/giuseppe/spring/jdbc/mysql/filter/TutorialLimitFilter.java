@@ -0,0 +1,308 @@
+package com.giuseppe.spring.jdbc.mysql.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Filtro davanti a {@code TutorialController} che applica un rate limit a token bucket per client
+ * e un limite di concorrenza adattivo per endpoint, così che gli endpoint costosi (lista completa,
+ * cancellazione totale) non tolgano risorse alle letture puntuali sotto carico.
+ *
+ * <p>Le richieste oltre il rate limit ricevono HTTP 429, quelle oltre il limite di concorrenza
+ * HTTP 503; in entrambi i casi con header {@code Retry-After}. L'endpoint è identificato da metodo
+ * e percorso, con i segmenti numerici sostituiti da {@code {id}}. Il feed delle modifiche è escluso
+ * perché le sue richieste long-poll restano aperte di proposito.</p>
+ *
+ * <p>Sotto contesa anche la latenza degli endpoint economici sale, quindi il loro limite scenderebbe
+ * insieme a quello degli endpoint costosi. Per questo gli endpoint indicati come costosi hanno un
+ * limite minimo più basso ({@code expensiveMinLimit}) degli altri ({@code minLimit}): sono loro a
+ * cedere capacità quando il sistema è congestionato. Hanno anche un tetto proprio
+ * ({@code expensiveMaxLimit}, di default il numero di core): una scansione occupa un core per
+ * tutta la sua durata, e il gradiente reagisce alla coda solo dopo una finestra, quando le letture
+ * puntuali l'hanno già subita.</p>
+ *
+ * <p>Il client è identificato da {@code getRemoteAddr()}. Dietro un proxy va quindi abilitata la
+ * gestione degli header {@code X-Forwarded-*} ({@code server.forward-headers-strategy}), altrimenti
+ * tutti i client condividono il bucket del proxy.</p>
+ *
+ * <p>I bucket per client sono al massimo {@code maxClients}, così un picco di indirizzi nuovi
+ * (anche falsificati) non fa crescere la memoria; un task periodico libera i bucket inattivi.
+ * Cosa succede a un client nuovo oltre il limite dipende da {@link OverflowPolicy}: con
+ * {@link OverflowPolicy#EVICT_LRU} si libera il bucket usato meno di recente, con
+ * {@link OverflowPolicy#SHARED} i nuovi client condividono un unico bucket di overflow.</p>
+ *
+ * <p>Metriche: {@code tutorials.limit.rejected} (tag {@code endpoint}, {@code reason}),
+ * {@code tutorials.limit.concurrency} e {@code tutorials.limit.inflight} (tag {@code endpoint}),
+ * {@code tutorials.limit.clients}.</p>
+ */
+public class TutorialLimitFilter extends OncePerRequestFilter {
+
+  /**
+   * Comportamento quando arriva un client nuovo e i bucket sono già {@code maxClients}.
+   */
+  public enum OverflowPolicy {
+    /**
+     * Libera il bucket usato meno di recente tra i più vecchi in coda: il nuovo client ha un bucket
+     * suo, mentre quello sfrattato ne riceverà uno pieno alla prossima richiesta.
+     */
+    EVICT_LRU,
+    /**
+     * I nuovi client condividono un unico bucket finché il task periodico non libera posti: un picco
+     * di indirizzi nuovi non tocca i client già noti, ma esaurisce il bucket comune per tutti i nuovi.
+     */
+    SHARED
+  }
+
+  private static final String CHANGES_PATH = "/api/tutorials/changes";
+  private static final long IDLE_CLIENT_NANOS = TimeUnit.MINUTES.toNanos(5);
+  private static final long EVICTION_PERIOD_SECONDS = 30;
+  // Candidati esaminati per ogni sfratto LRU: costo costante sul percorso della richiesta
+  private static final int LRU_SAMPLE = 8;
+  private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+  // Percorsi noti; gli altri confluiscono in un'unica chiave per non creare limiti e metriche senza fine
+  private static final Pattern KNOWN_PATH = Pattern.compile("/api/tutorials(/\\{id}|/published)?");
+
+  private final MeterRegistry meterRegistry;
+  private final double rateCapacity;
+  private final double ratePerSecond;
+  private final int maxClients;
+  private final OverflowPolicy overflowPolicy;
+  private final int initialLimit;
+  private final int minLimit;
+  private final int maxLimit;
+  private final long windowNanos;
+  private final Set<String> expensiveEndpoints;
+  private final int expensiveMinLimit;
+  private final int expensiveMaxLimit;
+
+  private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+  private final AtomicInteger clients = new AtomicInteger();
+  // Client in ordine di inserimento; chi sopravvive a uno sfratto torna in fondo
+  private final Queue<String> evictionOrder = new ConcurrentLinkedQueue<>();
+  private final TokenBucket overflowBucket;
+  private final ConcurrentMap<String, AdaptiveConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+  private ScheduledExecutorService evictor;
+
+  public TutorialLimitFilter(MeterRegistry meterRegistry, double rateCapacity, double ratePerSecond, int maxClients,
+                             OverflowPolicy overflowPolicy, int initialLimit, int minLimit, int maxLimit, long windowNanos,
+                             Set<String> expensiveEndpoints, int expensiveMinLimit, int expensiveMaxLimit) {
+    this.meterRegistry = meterRegistry;
+    this.rateCapacity = rateCapacity;
+    this.ratePerSecond = ratePerSecond;
+    this.maxClients = maxClients;
+    this.overflowPolicy = overflowPolicy;
+    this.initialLimit = initialLimit;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.windowNanos = windowNanos;
+    this.expensiveEndpoints = expensiveEndpoints;
+    this.expensiveMinLimit = expensiveMinLimit;
+    this.expensiveMaxLimit = expensiveMaxLimit;
+    this.overflowBucket = new TokenBucket(rateCapacity, ratePerSecond, System.nanoTime());
+    Gauge.builder("tutorials.limit.clients", clients, AtomicInteger::get)
+            .description("Client con un bucket dedicato")
+            .register(meterRegistry);
+  }
+
+  @Override
+  protected void initFilterBean() {
+    if (evictor == null) {
+      evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tutorial-limit-evictor");
+        thread.setDaemon(true);
+        return thread;
+      });
+      evictor.scheduleWithFixedDelay(() -> evictIdleClients(System.nanoTime()),
+              EVICTION_PERIOD_SECONDS, EVICTION_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    if (evictor != null) {
+      evictor.shutdownNow();
+    }
+  }
+
+  // Chiamato dal task periodico, fuori dal percorso delle richieste
+  void evictIdleClients(long now) {
+    buckets.forEach((client, bucket) -> {
+      if (bucket.isIdle(now, IDLE_CLIENT_NANOS) && buckets.remove(client, bucket)) {
+        clients.decrementAndGet();
+      }
+    });
+    evictionOrder.removeIf(client -> !buckets.containsKey(client));
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return path(request).startsWith(CHANGES_PATH);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+          throws ServletException, IOException {
+    String endpoint = endpoint(request);
+    long now = System.nanoTime();
+
+    long wait = bucket(request.getRemoteAddr(), now).tryAcquire(now);
+    if (wait > 0) {
+      reject(response, HttpStatus.TOO_MANY_REQUESTS, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999)),
+              endpoint, "rate_limit", "Too many requests, retry later.");
+      return;
+    }
+
+    AdaptiveConcurrencyLimit limit = limits.computeIfAbsent(endpoint, this::newLimit);
+    if (!limit.tryAcquire()) {
+      reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, endpoint, "concurrency",
+              "Server busy, retry later.");
+      return;
+    }
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      chain.doFilter(request, response);
+      failed = response.getStatus() >= 500;
+    } finally {
+      long end = System.nanoTime();
+      limit.release(end - start, !failed, end);
+    }
+  }
+
+  private TokenBucket bucket(String client, long now) {
+    TokenBucket bucket = buckets.get(client);
+    if (bucket != null) {
+      return bucket;
+    }
+    if (!reserveSlot()) {
+      if (overflowPolicy == OverflowPolicy.SHARED || !evictLeastRecentlyUsed() || !reserveSlot()) {
+        return overflowBucket;
+      }
+    }
+    TokenBucket created = new TokenBucket(rateCapacity, ratePerSecond, now);
+    TokenBucket existing = buckets.putIfAbsent(client, created);
+    if (existing != null) {
+      clients.decrementAndGet();
+      return existing;
+    }
+    if (overflowPolicy == OverflowPolicy.EVICT_LRU) {
+      evictionOrder.add(client);
+    }
+    return created;
+  }
+
+  // Si prenota un posto prima di inserire, così la mappa non supera mai maxClients
+  private boolean reserveSlot() {
+    int current;
+    do {
+      current = clients.get();
+      if (current >= maxClients) {
+        return false;
+      }
+    } while (!clients.compareAndSet(current, current + 1));
+    return true;
+  }
+
+  /**
+   * LRU approssimato: tra i primi {@link #LRU_SAMPLE} client in coda si sfratta quello usato meno
+   * di recente e gli altri tornano in fondo, senza scorrere tutta la mappa.
+   */
+  private boolean evictLeastRecentlyUsed() {
+    List<String> sample = new ArrayList<>(LRU_SAMPLE);
+    String victim = null;
+    long victimLastUsed = 0;
+    while (sample.size() < LRU_SAMPLE) {
+      String candidate = evictionOrder.poll();
+      if (candidate == null) {
+        break;
+      }
+      TokenBucket bucket = buckets.get(candidate);
+      if (bucket == null) {
+        // Già liberato dal task periodico
+        continue;
+      }
+      sample.add(candidate);
+      if (victim == null || bucket.getLastUsed() - victimLastUsed < 0) {
+        victim = candidate;
+        victimLastUsed = bucket.getLastUsed();
+      }
+    }
+    for (String candidate : sample) {
+      if (!candidate.equals(victim)) {
+        evictionOrder.add(candidate);
+      }
+    }
+    if (victim != null && buckets.remove(victim) != null) {
+      clients.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  private AdaptiveConcurrencyLimit newLimit(String endpoint) {
+    boolean expensive = expensiveEndpoints.contains(endpoint);
+    int min = expensive ? expensiveMinLimit : minLimit;
+    int max = expensive ? expensiveMaxLimit : maxLimit;
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(Math.min(Math.max(initialLimit, min), max), min,
+            max, windowNanos, System.nanoTime());
+    Gauge.builder("tutorials.limit.concurrency", limit, AdaptiveConcurrencyLimit::getLimit)
+            .description("Limite di concorrenza corrente")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry);
+    Gauge.builder("tutorials.limit.inflight", limit, AdaptiveConcurrencyLimit::getInflight)
+            .description("Richieste in corso")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry);
+    return limit;
+  }
+
+  private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String endpoint,
+                      String reason, String message) throws IOException {
+    Counter.builder("tutorials.limit.rejected")
+            .description("Richieste rifiutate dal filtro dei limiti")
+            .tag("endpoint", endpoint)
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment();
+    response.setStatus(status.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+    response.getWriter().write(message);
+  }
+
+  private static String endpoint(HttpServletRequest request) {
+    String path = ID_SEGMENT.matcher(path(request)).replaceAll("/{id}");
+    if (!KNOWN_PATH.matcher(path).matches()) {
+      path = "/api/tutorials/**";
+    }
+    return request.getMethod() + " " + path;
+  }
+
+  private static String path(HttpServletRequest request) {
+    return request.getRequestURI().substring(request.getContextPath().length());
+  }
+}
@@ -0,0 +1,60 @@
+package com.giuseppe.spring.jdbc.mysql.model;
+
+import java.time.Instant;
+
+/**
+ * Singola voce del change log dei tutorials.
+ *
+ * <p>Ogni voce ha un numero di sequenza monotono crescente assegnato al momento della scrittura.
+ * Per {@link Type#DELETED_ALL} l'id del tutorial è {@code 0} e lo snapshot è {@code null};
+ * per {@link Type#DELETED} lo snapshot è {@code null}.</p>
+ */
+public class TutorialChange {
+
+  public enum Type {
+    CREATED,
+    UPDATED,
+    DELETED,
+    DELETED_ALL
+  }
+
+  private final long sequence;
+  private final Type type;
+  private final long tutorialId;
+  private final Tutorial tutorial;
+  private final Instant timestamp;
+
+  public TutorialChange(long sequence, Type type, long tutorialId, Tutorial tutorial, Instant timestamp) {
+    this.sequence = sequence;
+    this.type = type;
+    this.tutorialId = tutorialId;
+    this.tutorial = tutorial;
+    this.timestamp = timestamp;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public long getTutorialId() {
+    return tutorialId;
+  }
+
+  public Tutorial getTutorial() {
+    return tutorial;
+  }
+
+  public Instant getTimestamp() {
+    return timestamp;
+  }
+
+  @Override
+  public String toString() {
+    return "TutorialChange [sequence=" + sequence + ", type=" + type + ", tutorialId=" + tutorialId + "]";
+  }
+
+}
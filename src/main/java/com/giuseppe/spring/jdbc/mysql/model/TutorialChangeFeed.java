@@ -0,0 +1,37 @@
+package com.giuseppe.spring.jdbc.mysql.model;
+
+import java.util.List;
+
+/**
+ * Risposta del feed delle modifiche: le voci successive al {@code since} richiesto,
+ * l'ultimo numero di sequenza noto (da usare come prossimo {@code since}) e un flag
+ * che segnala quando lo storico richiesto non è più disponibile.
+ *
+ * <p>Se {@code resetRequired} è {@code true} il consumer deve rileggere l'intera lista
+ * con {@code GET /api/tutorials} e ripartire da {@code lastSequence}.</p>
+ */
+public class TutorialChangeFeed {
+
+  private final long lastSequence;
+  private final boolean resetRequired;
+  private final List<TutorialChange> changes;
+
+  public TutorialChangeFeed(long lastSequence, boolean resetRequired, List<TutorialChange> changes) {
+    this.lastSequence = lastSequence;
+    this.resetRequired = resetRequired;
+    this.changes = changes;
+  }
+
+  public long getLastSequence() {
+    return lastSequence;
+  }
+
+  public boolean isResetRequired() {
+    return resetRequired;
+  }
+
+  public List<TutorialChange> getChanges() {
+    return changes;
+  }
+
+}
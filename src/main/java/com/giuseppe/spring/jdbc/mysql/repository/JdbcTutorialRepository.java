@@ -1,14 +1,19 @@
 package com.giuseppe.spring.jdbc.mysql.repository;
 
+import java.sql.PreparedStatement;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.giuseppe.spring.jdbc.mysql.model.Tutorial;
+import com.giuseppe.spring.jdbc.mysql.model.TutorialChange;
 
 @Repository
 public class JdbcTutorialRepository implements TutorialRepository {
@@ -16,16 +21,47 @@ public class JdbcTutorialRepository implements TutorialRepository {
   @Autowired
   private JdbcTemplate jdbcTemplate;
 
+  @Autowired
+  private TutorialChangeLog changeLog;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
   @Override
   public int save(Tutorial tutorial) {
-    return jdbcTemplate.update("INSERT INTO tutorials (title, description, published) VALUES(?,?,?)",
-            tutorial.getTitle(), tutorial.getDescription(), tutorial.isPublished());
+    // Insert e registrazione nella stessa transazione: la riga non è visibile prima di essere nel log
+    return changeLog.writeNew(() -> transactionTemplate.execute(status -> {
+      // Serve l'id generato per pubblicarlo nel change log
+      KeyHolder keyHolder = new GeneratedKeyHolder();
+      int rows = jdbcTemplate.update(connection -> {
+        PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO tutorials (title, description, published) VALUES(?,?,?)", new String[] { "id" });
+        ps.setString(1, tutorial.getTitle());
+        ps.setString(2, tutorial.getDescription());
+        ps.setBoolean(3, tutorial.isPublished());
+        return ps;
+      }, keyHolder);
+      Number key = keyHolder.getKey();
+      if (key != null) {
+        tutorial.setId(key.longValue());
+      }
+      if (rows > 0) {
+        changeLog.append(TutorialChange.Type.CREATED, tutorial.getId(), tutorial);
+      }
+      return rows;
+    }));
   }
 
   @Override
   public int update(Tutorial tutorial) {
-    return jdbcTemplate.update("UPDATE tutorials SET title=?, description=?, published=? WHERE id=?",
-            tutorial.getTitle(), tutorial.getDescription(), tutorial.isPublished(), tutorial.getId());
+    return changeLog.write(tutorial.getId(), () -> {
+      int rows = jdbcTemplate.update("UPDATE tutorials SET title=?, description=?, published=? WHERE id=?",
+              tutorial.getTitle(), tutorial.getDescription(), tutorial.isPublished(), tutorial.getId());
+      if (rows > 0) {
+        changeLog.append(TutorialChange.Type.UPDATED, tutorial.getId(), tutorial);
+      }
+      return rows;
+    });
   }
 
   @Override
@@ -42,7 +78,13 @@ public class JdbcTutorialRepository implements TutorialRepository {
 
   @Override
   public int deleteById(Long id) {
-    return jdbcTemplate.update("DELETE FROM tutorials WHERE id=?", id);
+    return changeLog.write(id, () -> {
+      int rows = jdbcTemplate.update("DELETE FROM tutorials WHERE id=?", id);
+      if (rows > 0) {
+        changeLog.append(TutorialChange.Type.DELETED, id, null);
+      }
+      return rows;
+    });
   }
 
   @Override
@@ -113,6 +155,12 @@ public class JdbcTutorialRepository implements TutorialRepository {
 
   @Override
   public int deleteAll() {
-    return jdbcTemplate.update("DELETE from tutorials");
+    return changeLog.writeAll(() -> {
+      int rows = jdbcTemplate.update("DELETE from tutorials");
+      if (rows > 0) {
+        changeLog.append(TutorialChange.Type.DELETED_ALL, 0, null);
+      }
+      return rows;
+    });
   }
 }
@@ -0,0 +1,227 @@
+package com.giuseppe.spring.jdbc.mysql.repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.giuseppe.spring.jdbc.mysql.model.Tutorial;
+import com.giuseppe.spring.jdbc.mysql.model.TutorialChange;
+import com.giuseppe.spring.jdbc.mysql.model.TutorialChangeFeed;
+
+/**
+ * Change log append-only in memoria, alimentato dalle scritture di {@link JdbcTutorialRepository}.
+ *
+ * <p>Ogni scrittura riceve un numero di sequenza monotono crescente anche tra un riavvio e l'altro:
+ * il contatore parte da {@code epoch-millis * 1000} all'avvio, quindi supera sempre le sequenze
+ * del processo precedente (salvo più di mille scritture al millisecondo). Tutto ciò che precede
+ * l'avvio è fuori dall'orizzonte e chi lo chiede riceve {@code resetRequired}. La ritenzione è limitata
+ * sia per età ({@code tutorials.changes.retention}) sia per numero di voci
+ * ({@code tutorials.changes.max-entries}). Superato il limite di voci il log viene prima compattato
+ * (si conserva solo l'ultima modifica per ogni tutorial e nulla prima dell'ultimo
+ * {@link TutorialChange.Type#DELETED_ALL}); se non basta si scartano le voci più vecchie
+ * fino a tre quarti della capacità.</p>
+ *
+ * <p>Le scritture sul database vanno eseguite dentro {@link #write(long, IntSupplier)},
+ * {@link #writeNew(IntSupplier)} o {@link #writeAll(IntSupplier)}, insieme alla relativa
+ * {@link #append}: così per ogni tutorial l'ordine delle sequenze coincide con l'ordine dei commit.
+ * Le scritture su tutorial diversi procedono in parallelo; solo la cancellazione totale le ferma
+ * tutte.</p>
+ *
+ * <p>Le voci scartate fanno avanzare l'orizzonte: un consumer con un {@code since} precedente
+ * all'orizzonte riceve {@code resetRequired} e deve rileggere l'intera tabella.</p>
+ */
+@Component
+public class TutorialChangeLog {
+
+  private static final int STRIPES = 64;
+
+  private final int maxEntries;
+  private final Duration retention;
+
+  private final ArrayDeque<TutorialChange> entries = new ArrayDeque<>();
+  private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+  // Separati dal monitor delle letture, che così non aspettano il database. Le scritture su una riga
+  // prendono il read lock e il lock della propria stripe, la cancellazione totale il write lock.
+  private final ReentrantReadWriteLock rowsLock = new ReentrantReadWriteLock();
+  private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+  private long lastSequence;
+  // Sequenza dell'ultima voce scartata: chi chiede da prima di qui ha perso dello storico
+  private long horizon;
+
+  public TutorialChangeLog(@Value("${tutorials.changes.max-entries:10000}") int maxEntries,
+                           @Value("${tutorials.changes.retention:1h}") Duration retention) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("tutorials.changes.max-entries must be positive");
+    }
+    this.maxEntries = maxEntries;
+    this.retention = retention;
+    this.lastSequence = System.currentTimeMillis() * 1000;
+    this.horizon = lastSequence;
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * Esegue una scrittura su un tutorial esistente e la sua registrazione come un unico passo
+   * ordinato rispetto alle altre scritture sullo stesso tutorial: senza, due update concorrenti
+   * sulla stessa riga potrebbero essere committati come A, B e registrati come B, A.
+   *
+   * @param tutorialId id del tutorial modificato
+   * @param write      scrittura sul database che chiama {@link #append} se ha modificato delle righe
+   * @return il valore restituito da {@code write}
+   */
+  public int write(long tutorialId, IntSupplier write) {
+    ReentrantLock stripe = stripes[Long.hashCode(tutorialId) & (STRIPES - 1)];
+    rowsLock.readLock().lock();
+    try {
+      stripe.lock();
+      try {
+        return write.getAsInt();
+      } finally {
+        stripe.unlock();
+      }
+    } finally {
+      rowsLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Esegue l'inserimento di un nuovo tutorial e la sua registrazione. L'id non è noto prima
+   * dell'insert, quindi non si prende alcuna stripe: {@code write} deve fare insert e
+   * {@link #append} nella stessa transazione, così la riga diventa visibile alle altre scritture
+   * solo dopo essere stata registrata.
+   *
+   * @param write inserimento transazionale che chiama {@link #append} se ha inserito la riga
+   * @return il valore restituito da {@code write}
+   */
+  public int writeNew(IntSupplier write) {
+    rowsLock.readLock().lock();
+    try {
+      return write.getAsInt();
+    } finally {
+      rowsLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Esegue una scrittura su tutta la tabella e la sua registrazione, in esclusiva rispetto a
+   * tutte le altre scritture.
+   *
+   * @param write scrittura sul database che chiama {@link #append} se ha modificato delle righe
+   * @return il valore restituito da {@code write}
+   */
+  public int writeAll(IntSupplier write) {
+    rowsLock.writeLock().lock();
+    try {
+      return write.getAsInt();
+    } finally {
+      rowsLock.writeLock().unlock();
+    }
+  }
+
+  public TutorialChange append(TutorialChange.Type type, long tutorialId, Tutorial tutorial) {
+    Tutorial snapshot = tutorial == null ? null
+        : new Tutorial(tutorialId, tutorial.getTitle(), tutorial.getDescription(), tutorial.isPublished());
+    TutorialChange change;
+    synchronized (this) {
+      Instant now = Instant.now();
+      change = new TutorialChange(++lastSequence, type, tutorialId, snapshot, now);
+      entries.addLast(change);
+      evictExpired(now);
+      if (entries.size() > maxEntries) {
+        compact();
+        int lowWatermark = maxEntries - maxEntries / 4;
+        while (entries.size() > lowWatermark) {
+          horizon = entries.removeFirst().getSequence();
+        }
+      }
+    }
+    // I listener vengono avvisati fuori dal monitor, così le letture non li aspettano. Girano però
+    // ancora dentro il lock di scrittura del chiamante: devono limitarsi ad accodare lavoro.
+    for (Runnable listener : listeners) {
+      listener.run();
+    }
+    return change;
+  }
+
+  /**
+   * Restituisce al massimo {@code limit} voci con sequenza maggiore di {@code since}, in ordine.
+   * Se la risposta è troncata, {@code lastSequence} è la sequenza dell'ultima voce restituita.
+   */
+  public synchronized TutorialChangeFeed since(long since, int limit) {
+    evictExpired(Instant.now());
+    if (since < horizon || since > lastSequence) {
+      return new TutorialChangeFeed(lastSequence, true, Collections.emptyList());
+    }
+
+    List<TutorialChange> changes = new ArrayList<>();
+    Iterator<TutorialChange> it = entries.descendingIterator();
+    while (it.hasNext()) {
+      TutorialChange change = it.next();
+      if (change.getSequence() <= since) {
+        break;
+      }
+      changes.add(change);
+    }
+    Collections.reverse(changes);
+
+    if (changes.size() > limit) {
+      changes = new ArrayList<>(changes.subList(0, limit));
+      return new TutorialChangeFeed(changes.get(limit - 1).getSequence(), false, changes);
+    }
+    return new TutorialChangeFeed(lastSequence, false, changes);
+  }
+
+  public synchronized long getLastSequence() {
+    return lastSequence;
+  }
+
+  public void addListener(Runnable listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(Runnable listener) {
+    listeners.remove(listener);
+  }
+
+  private void evictExpired(Instant now) {
+    Instant cutoff = now.minus(retention);
+    while (!entries.isEmpty() && entries.peekFirst().getTimestamp().isBefore(cutoff)) {
+      horizon = entries.removeFirst().getSequence();
+    }
+  }
+
+  // Scorre dal più recente al più vecchio tenendo solo l'ultima modifica per id
+  private void compact() {
+    ArrayDeque<TutorialChange> compacted = new ArrayDeque<>();
+    Set<Long> seen = new HashSet<>();
+    Iterator<TutorialChange> it = entries.descendingIterator();
+    while (it.hasNext()) {
+      TutorialChange change = it.next();
+      if (change.getType() == TutorialChange.Type.DELETED_ALL) {
+        compacted.addFirst(change);
+        break;
+      }
+      if (seen.add(change.getTutorialId())) {
+        compacted.addFirst(change);
+      }
+    }
+    entries.clear();
+    entries.addAll(compacted);
+  }
+}
@@ -0,0 +1,54 @@
+package com.giuseppe.spring.jdbc.mysql.service.api;
+
+import com.giuseppe.spring.jdbc.mysql.model.TutorialChangeFeed;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interfaccia per la lettura del feed delle modifiche sui tutorial.
+ *
+ * <p>Permette ai consumer di ricevere solo le differenze rispetto all'ultimo numero di sequenza
+ * visto, invece di rileggere periodicamente l'intera lista dei tutorial.</p>
+ */
+public interface ITutorialChangeService {
+
+    /**
+     * Restituisce subito le modifiche successive a {@code since}.
+     *
+     * @param since Ultimo numero di sequenza già ricevuto dal consumer (al primo accesso {@code 0}: si riceve {@code resetRequired} con la sequenza da cui partire).
+     * @param limit Numero massimo di modifiche da restituire.
+     * @return Il feed con le modifiche trovate, eventualmente vuoto.
+     */
+    TutorialChangeFeed getChanges(long since, int limit);
+
+    /**
+     * Attende (long-poll) finché non ci sono modifiche successive a {@code since} o scade il timeout.
+     *
+     * <p>Se ci sono già modifiche, o lo storico richiesto non è più disponibile, il future
+     * è completato immediatamente. Allo scadere del timeout il future viene completato
+     * con un feed vuoto.</p>
+     *
+     * @param since   Ultimo numero di sequenza già ricevuto dal consumer.
+     * @param limit   Numero massimo di modifiche da restituire.
+     * @param timeout Tempo massimo di attesa.
+     * @return Un future completato con il feed delle modifiche.
+     */
+    CompletableFuture<TutorialChangeFeed> awaitChanges(long since, int limit, Duration timeout);
+
+    /**
+     * Registra un listener invocato in modo asincrono dopo ogni nuova modifica. Le modifiche
+     * arrivate mentre il listener è già in coda o in esecuzione producono una sola invocazione
+     * successiva, mai invocazioni concorrenti.
+     *
+     * @param listener Il listener da registrare.
+     */
+    void addListener(Runnable listener);
+
+    /**
+     * Rimuove un listener registrato con {@link #addListener(Runnable)}.
+     *
+     * @param listener Il listener da rimuovere.
+     */
+    void removeListener(Runnable listener);
+}
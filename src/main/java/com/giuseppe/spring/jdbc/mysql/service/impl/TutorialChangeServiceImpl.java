@@ -0,0 +1,150 @@
+package com.giuseppe.spring.jdbc.mysql.service.impl;
+
+import com.giuseppe.spring.jdbc.mysql.model.TutorialChangeFeed;
+import com.giuseppe.spring.jdbc.mysql.repository.TutorialChangeLog;
+import com.giuseppe.spring.jdbc.mysql.service.api.ITutorialChangeService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class TutorialChangeServiceImpl implements ITutorialChangeService {
+
+    private final TutorialChangeLog changeLog;
+    private final ExecutorService executor;
+    private final ConcurrentMap<Runnable, Notifier> listeners = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor timeouts;
+
+    public TutorialChangeServiceImpl(TutorialChangeLog changeLog,
+                                     @Value("${tutorials.changes.notify-threads:4}") int notifyThreads) {
+        this.changeLog = changeLog;
+        // Executor dedicato: un client SSE lento occupa un thread di questo pool, non quelli dell'applicazione
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(notifyThreads, runnable -> {
+            Thread thread = new Thread(runnable, "tutorial-changes-notify-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timeouts = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "tutorial-changes-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // I timer dei long-poll completati in anticipo vengono tolti subito dalla coda
+        this.timeouts.setRemoveOnCancelPolicy(true);
+        // I listener girano sull'executor così le scritture non aspettano i client lenti
+        changeLog.addListener(() -> listeners.values().forEach(Notifier::signal));
+    }
+
+    @Override
+    public TutorialChangeFeed getChanges(long since, int limit) {
+        return changeLog.since(since, limit);
+    }
+
+    @Override
+    public CompletableFuture<TutorialChangeFeed> awaitChanges(long since, int limit, Duration timeout) {
+        TutorialChangeFeed feed = changeLog.since(since, limit);
+        if (hasNews(feed) || timeout.isZero() || timeout.isNegative()) {
+            return CompletableFuture.completedFuture(feed);
+        }
+
+        CompletableFuture<TutorialChangeFeed> result = new CompletableFuture<>();
+        Runnable waiter = () -> {
+            TutorialChangeFeed current = changeLog.since(since, limit);
+            if (hasNews(current)) {
+                result.complete(current);
+            }
+        };
+        addListener(waiter);
+        ScheduledFuture<?> timer = timeouts.schedule(() -> result.complete(changeLog.since(since, limit)),
+                timeout.toMillis(), TimeUnit.MILLISECONDS);
+        result.whenComplete((f, e) -> {
+            removeListener(waiter);
+            timer.cancel(false);
+        });
+        // Ricontrolla dopo la registrazione per non perdere modifiche arrivate nel frattempo
+        waiter.run();
+        return result;
+    }
+
+    @Override
+    public void addListener(Runnable listener) {
+        listeners.putIfAbsent(listener, new Notifier(listener));
+    }
+
+    @Override
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timeouts.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    // Timer di long-poll ancora in coda, per i test
+    int pendingTimeouts() {
+        return timeouts.getQueue().size();
+    }
+
+    /**
+     * Accoda un listener sull'executor al massimo una volta: le notifiche che arrivano mentre è
+     * in coda o in esecuzione vengono riunite in un solo giro successivo. Così un listener lento
+     * occupa al più un thread, e la coda non cresce con il numero di scritture.
+     */
+    private final class Notifier implements Runnable {
+
+        private final Runnable listener;
+        // Un task di questo listener è in coda o in esecuzione
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // C'è una notifica non ancora vista dal listener
+        private final AtomicBoolean pending = new AtomicBoolean();
+
+        Notifier(Runnable listener) {
+            this.listener = listener;
+        }
+
+        void signal() {
+            pending.set(true);
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // Servizio in chiusura
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            do {
+                pending.set(false);
+                try {
+                    listener.run();
+                } finally {
+                    scheduled.set(false);
+                }
+                // Una notifica arrivata durante il giro va servita, a meno che un altro task sia già partito
+            } while (pending.get() && scheduled.compareAndSet(false, true));
+        }
+    }
+
+    private static boolean hasNews(TutorialChangeFeed feed) {
+        return feed.isResetRequired() || !feed.getChanges().isEmpty();
+    }
+}
@@ -0,0 +1,24 @@
+package com.giuseppe.spring.jdbc.mysql.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class DataSourcePoolConfigTests {
+
+	@Test
+	void sizeIsCoresTimesOnePlusWaitComputeRatioRoundedUp() {
+		assertEquals(8, DataSourcePoolConfig.poolSize(4, 1.0, 32));
+		// 3 * 1.5 = 4.5
+		assertEquals(5, DataSourcePoolConfig.poolSize(3, 0.5, 32));
+	}
+
+	@Test
+	void sizeIsClampedBetweenTwoAndMaxSize() {
+		assertEquals(2, DataSourcePoolConfig.poolSize(1, 0, 32));
+		assertEquals(32, DataSourcePoolConfig.poolSize(64, 1.0, 32));
+		// Un rapporto negativo vale come zero
+		assertEquals(4, DataSourcePoolConfig.poolSize(4, -1.0, 32));
+	}
+
+}
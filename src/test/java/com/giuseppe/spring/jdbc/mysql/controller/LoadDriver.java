@@ -0,0 +1,115 @@
+package com.giuseppe.spring.jdbc.mysql.controller;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Generatore di carico a ciclo chiuso per i test di carico: ogni client invia la richiesta
+ * successiva appena riceve la risposta alla precedente, salvo attendere quando la risposta
+ * contiene {@code Retry-After}.
+ */
+final class LoadDriver {
+
+	private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+	Result run(String name, int clients, Duration duration, Supplier<HttpRequest> request,
+			   Set<Integer> expectedStatus, Consumer<HttpResponse<String>> onResponse) throws InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(clients);
+		long[][] latencies = new long[clients][];
+		int[] counts = new int[clients];
+		int[] errors = new int[clients];
+		CountDownLatch done = new CountDownLatch(clients);
+		long start = System.nanoTime();
+		long end = start + duration.toNanos();
+		for (int c = 0; c < clients; c++) {
+			int index = c;
+			pool.execute(() -> {
+				long[] samples = new long[1024];
+				int n = 0;
+				try {
+					while (System.nanoTime() < end) {
+						long t0 = System.nanoTime();
+						int status;
+						long retryAfter = 0;
+						try {
+							HttpResponse<String> response = client.send(request.get(), HttpResponse.BodyHandlers.ofString());
+							status = response.statusCode();
+							onResponse.accept(response);
+							retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(0);
+						} catch (Exception e) {
+							status = -1;
+						}
+						if (n == samples.length) {
+							samples = Arrays.copyOf(samples, n * 2);
+						}
+						samples[n++] = System.nanoTime() - t0;
+						// Come un client reale, rispetta Retry-After prima di riprovare
+						if (retryAfter > 0) {
+							pause(Math.min(retryAfter, (end - System.nanoTime()) / 1_000_000_000));
+						}
+						if (!expectedStatus.contains(status)) {
+							errors[index]++;
+						}
+					}
+				} finally {
+					latencies[index] = samples;
+					counts[index] = n;
+					done.countDown();
+				}
+			});
+		}
+		done.await();
+		long elapsed = System.nanoTime() - start;
+		pool.shutdown();
+
+		int total = Arrays.stream(counts).sum();
+		long[] all = new long[total];
+		int offset = 0;
+		for (int c = 0; c < clients; c++) {
+			System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+			offset += counts[c];
+		}
+		Arrays.sort(all);
+		return new Result(name, total, Arrays.stream(errors).sum(), elapsed, all);
+	}
+
+	private static void pause(long seconds) {
+		try {
+			Thread.sleep(Math.max(seconds, 0) * 1000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	record Result(String name, int requests, int errors, long elapsedNanos, long[] sortedLatencies) {
+
+		double throughput() {
+			return requests * 1_000_000_000.0 / elapsedNanos;
+		}
+
+		long p99Millis() {
+			if (sortedLatencies.length == 0) {
+				return Long.MAX_VALUE;
+			}
+			int index = (int) Math.ceil(sortedLatencies.length * 0.99) - 1;
+			return sortedLatencies[Math.max(index, 0)] / 1_000_000;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-42s %8d req %8.0f req/s  p50 %4d ms  p99 %4d ms  errors %d", name, requests,
+					throughput(), sortedLatencies.length == 0 ? 0 : sortedLatencies[sortedLatencies.length / 2] / 1_000_000,
+					p99Millis(), errors);
+		}
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.giuseppe.spring.jdbc.mysql.controller;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.giuseppe.spring.jdbc.mysql.model.Tutorial;
+import com.giuseppe.spring.jdbc.mysql.repository.TutorialChangeLog;
+import com.giuseppe.spring.jdbc.mysql.repository.TutorialRepository;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TutorialChangeControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TutorialRepository tutorialRepository;
+
+	@Autowired
+	private TutorialChangeLog changeLog;
+
+	@Test
+	void streamResumesFromLastEventIdAndPushesNewChanges() throws Exception {
+		tutorialRepository.save(new Tutorial("first", "d", false));
+		long first = changeLog.getLastSequence();
+		tutorialRepository.save(new Tutorial("second", "d", false));
+		long second = changeLog.getLastSequence();
+
+		MockHttpServletResponse response = mockMvc.perform(get("/api/tutorials/changes")
+						.accept(MediaType.TEXT_EVENT_STREAM)
+						.header("Last-Event-ID", first))
+				.andExpect(request().asyncStarted())
+				.andReturn()
+				.getResponse();
+
+		String replay = response.getContentAsString();
+		assertFalse(replay.contains("id:" + first + "\n"), replay);
+		assertTrue(replay.contains("id:" + second + "\n"), replay);
+
+		tutorialRepository.save(new Tutorial("third", "d", false));
+		String live = "id:" + changeLog.getLastSequence() + "\n";
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!response.getContentAsString().contains(live) && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+		assertTrue(response.getContentAsString().contains(live), response.getContentAsString());
+	}
+
+}
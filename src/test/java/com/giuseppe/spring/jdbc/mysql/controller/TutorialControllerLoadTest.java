@@ -0,0 +1,126 @@
+package com.giuseppe.spring.jdbc.mysql.controller;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Scenario di carico ripetibile sugli endpoint di {@link TutorialController}, eseguito contro
+ * H2 in memoria con il profilo {@code prod}. Escluso dalla build normale: si lancia con
+ * {@code ./mvnw test -Ploadtest}.
+ *
+ * <p>Ogni endpoint viene sollecitato a ciclo chiuso da {@code loadtest.clients} client per
+ * {@code loadtest.duration} secondi, dopo un riscaldamento; il test fallisce se throughput o p99
+ * non rispettano gli obiettivi. Gli obiettivi sono prudenti per girare su una macchina di sviluppo.</p>
+ */
+@Tag("load")
+@ActiveProfiles("prod")
+// Il filtro dei limiti è disattivato: qui si misura la configurazione JDBC, non lo shedding
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "tutorials.limits.enabled=false")
+class TutorialControllerLoadTest {
+
+	private static final int CLIENTS = Integer.getInteger("loadtest.clients", 16);
+	private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("loadtest.warmup", 3));
+	private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.duration", 5));
+
+	private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+	@LocalServerPort
+	private int port;
+
+	private final LoadDriver driver = new LoadDriver();
+	private final Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+
+	@Test
+	void endpointsMeetThroughputAndLatencyTargets() throws Exception {
+		// L'ordine conta: prima le letture, poi le scritture che creano gli id usati da PUT e DELETE
+		List<Scenario> scenarios = List.of(
+				new Scenario("GET /api/tutorials", 150, 250, Set.of(200),
+						() -> get("/api/tutorials")),
+				new Scenario("GET /api/tutorials?title&orderBy&limit", 150, 250, Set.of(200, 204),
+						() -> get("/api/tutorials?title=Spring&orderBy=title&limit=5")),
+				new Scenario("GET /api/tutorials/{id}", 300, 100, Set.of(200),
+						() -> get("/api/tutorials/" + ThreadLocalRandom.current().nextInt(1, 11))),
+				new Scenario("GET /api/tutorials/published", 150, 250, Set.of(200),
+						() -> get("/api/tutorials/published")),
+				new Scenario("POST /api/tutorials", 150, 250, Set.of(201),
+						() -> send("POST", "/api/tutorials", "{\"title\":\"Load\",\"description\":\"test\"}")),
+				new Scenario("PUT /api/tutorials/{id}", 150, 250, Set.of(200),
+						() -> send("PUT", "/api/tutorials/" + ThreadLocalRandom.current().nextInt(1, 11),
+								"{\"title\":\"Load\",\"description\":\"updated\",\"published\":true}")),
+				new Scenario("DELETE /api/tutorials/{id}", 150, 250, Set.of(200, 404),
+						() -> send("DELETE", "/api/tutorials/" + nextIdToDelete(), null)),
+				new Scenario("DELETE /api/tutorials", 150, 250, Set.of(200),
+						() -> send("DELETE", "/api/tutorials", null)));
+
+		List<String> failures = new ArrayList<>();
+		for (Scenario scenario : scenarios) {
+			run(scenario, WARMUP);
+			LoadDriver.Result result = run(scenario, DURATION);
+			System.out.println(result);
+			if (result.errors() > 0) {
+				failures.add(scenario.name + ": " + result.errors() + " unexpected responses");
+			}
+			if (result.throughput() < scenario.minThroughput) {
+				failures.add(scenario.name + ": throughput " + Math.round(result.throughput())
+						+ " req/s < " + scenario.minThroughput);
+			}
+			if (result.p99Millis() > scenario.maxP99Millis) {
+				failures.add(scenario.name + ": p99 " + result.p99Millis() + " ms > " + scenario.maxP99Millis);
+			}
+		}
+		assertTrue(failures.isEmpty(), String.join("\n", failures));
+	}
+
+	private LoadDriver.Result run(Scenario scenario, Duration duration) throws InterruptedException {
+		return driver.run(scenario.name, CLIENTS, duration, scenario.request, scenario.expectedStatus, response -> {
+			if (response.statusCode() == 201) {
+				Matcher m = ID.matcher(response.body());
+				if (m.find()) {
+					createdIds.add(Long.parseLong(m.group(1)));
+				}
+			}
+		});
+	}
+
+	private long nextIdToDelete() {
+		Long id = createdIds.poll();
+		return id != null ? id : ThreadLocalRandom.current().nextLong(1, 100_000);
+	}
+
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+	}
+
+	private HttpRequest send(String method, String path, String json) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+		if (json == null) {
+			return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+		}
+		return builder.header("Content-Type", "application/json")
+				.method(method, HttpRequest.BodyPublishers.ofString(json))
+				.build();
+	}
+
+	private record Scenario(String name, int minThroughput, long maxP99Millis, Set<Integer> expectedStatus,
+							Supplier<HttpRequest> request) {
+	}
+
+}
@@ -0,0 +1,105 @@
+package com.giuseppe.spring.jdbc.mysql.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Verifica che, con l'endpoint di lettura completa saturato, il p99 delle letture puntuali resti
+ * stabile grazie al limite di concorrenza adattivo di {@code TutorialLimitFilter}.
+ * Si lancia con {@code ./mvnw test -Ploadtest}; richiede più di un core.
+ *
+ * <p>Tutti i client arrivano da localhost, quindi il rate limit per client è alzato per non
+ * interferire con la misura del limite di concorrenza.</p>
+ */
+@Tag("load")
+@ActiveProfiles("prod")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"tutorials.limits.rate.capacity=1000000",
+		"tutorials.limits.rate.per-second=1000000" })
+class TutorialLimitFilterLoadTest {
+
+	private static final int ROWS = 5000;
+	private static final int POINT_CLIENTS = 4;
+	private static final int SCAN_CLIENTS = 48;
+	private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.duration", 5));
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final LoadDriver driver = new LoadDriver();
+
+	@Test
+	void pointReadLatencyStaysStableWhileScanIsSaturated() throws Exception {
+		// Con un solo core anche una sola scansione ammessa occupa tutta la CPU: lo scenario non è significativo
+		assumeTrue(Runtime.getRuntime().availableProcessors() > 1, "needs more than one core");
+
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < ROWS; i++) {
+			rows.add(new Object[] { "Load " + i, "Tutorial di carico " + i, i % 2 == 0 });
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO tutorials (title, description, published) VALUES(?,?,?)", rows);
+
+		// Il database in memoria può essere condiviso con altri test: si usano gli id appena inseriti
+		long lastId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM tutorials", Long.class);
+		Supplier<HttpRequest> pointRead = () -> get("/api/tutorials/"
+				+ ThreadLocalRandom.current().nextLong(lastId - ROWS + 1, lastId + 1));
+		Supplier<HttpRequest> scan = () -> get("/api/tutorials");
+
+		// Riscaldamento di entrambi gli endpoint, poi la misura di riferimento delle sole letture puntuali
+		driver.run("warmup", POINT_CLIENTS, Duration.ofSeconds(3), scan, Set.of(200, 503), r -> { });
+		driver.run("warmup", POINT_CLIENTS, Duration.ofSeconds(2), pointRead, Set.of(200), r -> { });
+		LoadDriver.Result baseline = driver.run("GET /api/tutorials/{id} (alone)", POINT_CLIENTS, DURATION,
+				pointRead, Set.of(200), r -> { });
+		System.out.println(baseline);
+
+		CompletableFuture<LoadDriver.Result> saturation = CompletableFuture.supplyAsync(() -> {
+			try {
+				return driver.run("GET /api/tutorials (saturated)", SCAN_CLIENTS, DURATION.plusSeconds(2), scan,
+						Set.of(200), r -> { });
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		Thread.sleep(1000);
+		LoadDriver.Result underLoad = driver.run("GET /api/tutorials/{id} (with scan)", POINT_CLIENTS, DURATION,
+				pointRead, Set.of(200), r -> { });
+		LoadDriver.Result scanResult = saturation.get();
+		System.out.println(underLoad);
+		System.out.println(scanResult + " (errors = shed with 503)");
+
+		assertEquals(0, underLoad.errors(), "point reads must not be shed");
+		assertTrue(scanResult.errors() > 0, "the saturated scan endpoint should have been shed");
+		// Il p99 può al massimo triplicare; 10 ms come risoluzione minima per non misurare rumore
+		long allowed = 3 * Math.max(baseline.p99Millis(), 10);
+		assertTrue(underLoad.p99Millis() <= allowed,
+				"point-read p99 " + underLoad.p99Millis() + " ms exceeds " + allowed + " ms (baseline "
+						+ baseline.p99Millis() + " ms)");
+	}
+
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+	}
+
+}
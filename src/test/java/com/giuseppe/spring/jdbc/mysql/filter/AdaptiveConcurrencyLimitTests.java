@@ -0,0 +1,59 @@
+package com.giuseppe.spring.jdbc.mysql.filter;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimitTests {
+
+	private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+	private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	void rejectsBeyondLimit() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, WINDOW, 0);
+
+		assertTrue(limit.tryAcquire());
+		assertTrue(limit.tryAcquire());
+		assertFalse(limit.tryAcquire());
+
+		limit.release(MS, true, 1);
+		assertTrue(limit.tryAcquire());
+	}
+
+	@Test
+	void growsWhenLatencyIsStableAndShrinksWhenItRises() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, WINDOW, 0);
+		long now = 0;
+
+		for (int w = 0; w < 20; w++) {
+			now = runWindow(limit, now, 10 * MS);
+		}
+		int grown = limit.getLimit();
+		assertTrue(grown > 10, "limit was " + grown);
+
+		for (int w = 0; w < 20; w++) {
+			now = runWindow(limit, now, 100 * MS);
+		}
+		assertTrue(limit.getLimit() < grown, "limit was " + limit.getLimit());
+	}
+
+	// Satura il limite corrente con richieste della latenza indicata e chiude la finestra
+	private static long runWindow(AdaptiveConcurrencyLimit limit, long now, long rtt) {
+		int acquired = 0;
+		while (limit.tryAcquire()) {
+			acquired++;
+		}
+		for (int i = 0; i < acquired; i++) {
+			limit.release(rtt, true, now);
+		}
+		long next = now + WINDOW;
+		assertTrue(limit.tryAcquire());
+		limit.release(rtt, true, next);
+		return next;
+	}
+
+}
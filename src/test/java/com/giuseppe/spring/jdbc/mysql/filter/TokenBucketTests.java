@@ -0,0 +1,40 @@
+package com.giuseppe.spring.jdbc.mysql.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTests {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	void allowsBurstUpToCapacityThenReportsWait() {
+		TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+		assertEquals(0, bucket.tryAcquire(0));
+		assertEquals(0, bucket.tryAcquire(0));
+		assertEquals(0, bucket.tryAcquire(0));
+		long wait = bucket.tryAcquire(0);
+		assertTrue(wait > 0 && wait <= SECOND, "wait was " + wait);
+	}
+
+	@Test
+	void refillsOverTimeWithoutExceedingCapacity() {
+		TokenBucket bucket = new TokenBucket(2, 1, 0);
+		bucket.tryAcquire(0);
+		bucket.tryAcquire(0);
+
+		assertEquals(0, bucket.tryAcquire(SECOND));
+		assertTrue(bucket.tryAcquire(SECOND) > 0);
+
+		long later = 100 * SECOND;
+		assertEquals(0, bucket.tryAcquire(later));
+		assertEquals(0, bucket.tryAcquire(later));
+		assertTrue(bucket.tryAcquire(later) > 0);
+	}
+
+}
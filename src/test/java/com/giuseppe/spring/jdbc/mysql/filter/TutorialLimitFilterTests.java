@@ -0,0 +1,87 @@
+package com.giuseppe.spring.jdbc.mysql.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TutorialLimitFilterTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void clientsBeyondTheCapShareTheOverflowBucket() throws Exception {
+		TutorialLimitFilter filter = filter(2, TutorialLimitFilter.OverflowPolicy.SHARED);
+
+		assertEquals(200, get(filter, "10.0.0.1"));
+		assertEquals(200, get(filter, "10.0.0.2"));
+		assertEquals(200, get(filter, "10.0.0.3"));
+		// Il quarto client finisce nello stesso bucket del terzo, già vuoto
+		assertEquals(429, get(filter, "10.0.0.4"));
+		assertEquals(2, meterRegistry.get("tutorials.limit.clients").gauge().value());
+	}
+
+	@Test
+	void clientBeyondTheCapEvictsTheLeastRecentlyUsedBucket() throws Exception {
+		TutorialLimitFilter filter = filter(2, TutorialLimitFilter.OverflowPolicy.EVICT_LRU);
+		assertEquals(200, get(filter, "10.0.0.1"));
+		assertEquals(200, get(filter, "10.0.0.2"));
+
+		// Il terzo client ha un bucket suo al posto di quello del primo
+		assertEquals(200, get(filter, "10.0.0.3"));
+		assertEquals(2, meterRegistry.get("tutorials.limit.clients").gauge().value());
+		// Il secondo conserva il bucket, già vuoto
+		assertEquals(429, get(filter, "10.0.0.2"));
+	}
+
+	@Test
+	void numericSegmentsAreGroupedIntoOneEndpoint() throws Exception {
+		TutorialLimitFilter filter = filter(10);
+		get(filter, "10.0.0.1", "/api/tutorials/1");
+		get(filter, "10.0.0.2", "/api/tutorials/42");
+
+		assertEquals(1, meterRegistry.find("tutorials.limit.concurrency").gauges().size());
+		meterRegistry.get("tutorials.limit.concurrency").tag("endpoint", "GET /api/tutorials/{id}").gauge();
+	}
+
+	@Test
+	void evictionFreesSlotsForNewClients() throws Exception {
+		TutorialLimitFilter filter = filter(1);
+		assertEquals(200, get(filter, "10.0.0.1"));
+
+		filter.evictIdleClients(System.nanoTime() + TimeUnit.MINUTES.toNanos(10));
+
+		assertEquals(0, meterRegistry.get("tutorials.limit.clients").gauge().value());
+		assertEquals(200, get(filter, "10.0.0.2"));
+	}
+
+	// Un solo token per bucket e nessuna ricarica apprezzabile
+	private TutorialLimitFilter filter(int maxClients) {
+		return filter(maxClients, TutorialLimitFilter.OverflowPolicy.EVICT_LRU);
+	}
+
+	private TutorialLimitFilter filter(int maxClients, TutorialLimitFilter.OverflowPolicy overflowPolicy) {
+		return new TutorialLimitFilter(meterRegistry, 1, 0.001, maxClients, overflowPolicy, 20, 10, 200,
+				TimeUnit.MILLISECONDS.toNanos(100), Set.of(), 1, 200);
+	}
+
+	private static int get(TutorialLimitFilter filter, String remoteAddr) throws Exception {
+		return get(filter, remoteAddr, "/api/tutorials/1");
+	}
+
+	private static int get(TutorialLimitFilter filter, String remoteAddr, String path) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.setRemoteAddr(remoteAddr);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response.getStatus();
+	}
+
+}
@@ -0,0 +1,110 @@
+package com.giuseppe.spring.jdbc.mysql.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.giuseppe.spring.jdbc.mysql.model.Tutorial;
+import com.giuseppe.spring.jdbc.mysql.model.TutorialChange;
+
+@SpringBootTest
+class JdbcTutorialRepositoryTests {
+
+	private static final int THREADS = 8;
+	private static final int ROUNDS = 100;
+
+	@Autowired
+	private TutorialRepository tutorialRepository;
+
+	@Autowired
+	private TutorialChangeLog changeLog;
+
+	@Test
+	void concurrentUpdatesAreLoggedInCommitOrder() throws Exception {
+		Tutorial tutorial = new Tutorial("initial", "d", false);
+		tutorialRepository.save(tutorial);
+		long id = tutorial.getId();
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			for (int round = 0; round < ROUNDS; round++) {
+				long since = changeLog.getLastSequence();
+				CountDownLatch start = new CountDownLatch(1);
+				Future<?>[] updates = new Future<?>[THREADS];
+				for (int t = 0; t < THREADS; t++) {
+					String title = "round " + round + " thread " + t;
+					updates[t] = pool.submit(() -> {
+						start.await();
+						return tutorialRepository.update(new Tutorial(id, title, "d", false));
+					});
+				}
+				start.countDown();
+				for (Future<?> update : updates) {
+					update.get();
+				}
+
+				// L'ultima modifica registrata deve essere quella rimasta nel database
+				List<TutorialChange> changes = changeLog.since(since, Integer.MAX_VALUE).getChanges();
+				assertEquals(THREADS, changes.size());
+				assertEquals(tutorialRepository.findById(id).getTitle(),
+						changes.get(changes.size() - 1).getTutorial().getTitle(), "round " + round);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void updatesRacingDeleteAllAreNotLoggedAfterIt() throws Exception {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			Tutorial tutorial = new Tutorial("row " + i, "d", false);
+			tutorialRepository.save(tutorial);
+			ids.add(tutorial.getId());
+		}
+		long since = changeLog.getLastSequence();
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> writes = new ArrayList<>();
+			for (long id : ids) {
+				writes.add(pool.submit(() -> {
+					start.await();
+					for (int round = 0; round < ROUNDS; round++) {
+						tutorialRepository.update(new Tutorial(id, "round " + round, "d", false));
+					}
+					return null;
+				}));
+			}
+			writes.add(pool.submit(() -> {
+				start.await();
+				Thread.sleep(5);
+				return tutorialRepository.deleteAll();
+			}));
+			start.countDown();
+			for (Future<?> write : writes) {
+				write.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+		// Dopo la cancellazione gli update non trovano più righe: nessun UPDATED può seguire DELETED_ALL
+		List<TutorialChange> changes = changeLog.since(since, Integer.MAX_VALUE).getChanges();
+		TutorialChange last = changes.get(changes.size() - 1);
+		assertEquals(TutorialChange.Type.DELETED_ALL, last.getType());
+		assertTrue(tutorialRepository.findAll().isEmpty());
+	}
+
+}
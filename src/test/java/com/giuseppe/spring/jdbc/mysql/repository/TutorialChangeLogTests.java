@@ -0,0 +1,129 @@
+package com.giuseppe.spring.jdbc.mysql.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.giuseppe.spring.jdbc.mysql.model.Tutorial;
+import com.giuseppe.spring.jdbc.mysql.model.TutorialChange;
+import com.giuseppe.spring.jdbc.mysql.model.TutorialChangeFeed;
+
+class TutorialChangeLogTests {
+
+	@Test
+	void returnsOnlyChangesAfterSince() {
+		TutorialChangeLog log = new TutorialChangeLog(100, Duration.ofHours(1));
+		long start = log.getLastSequence();
+		log.append(TutorialChange.Type.CREATED, 1, new Tutorial("a", "a", false));
+		log.append(TutorialChange.Type.CREATED, 2, new Tutorial("b", "b", false));
+		log.append(TutorialChange.Type.DELETED, 1, null);
+
+		TutorialChangeFeed feed = log.since(start + 1, 100);
+
+		assertFalse(feed.isResetRequired());
+		assertEquals(start + 3, feed.getLastSequence());
+		assertEquals(2, feed.getChanges().size());
+		assertEquals(start + 2, feed.getChanges().get(0).getSequence());
+		assertEquals(TutorialChange.Type.DELETED, feed.getChanges().get(1).getType());
+	}
+
+	@Test
+	void truncatedFeedPointsAtLastReturnedChange() {
+		TutorialChangeLog log = new TutorialChangeLog(100, Duration.ofHours(1));
+		long start = log.getLastSequence();
+		for (int i = 1; i <= 5; i++) {
+			log.append(TutorialChange.Type.CREATED, i, new Tutorial("t" + i, "d", false));
+		}
+
+		TutorialChangeFeed feed = log.since(start, 2);
+
+		assertEquals(2, feed.getChanges().size());
+		assertEquals(start + 2, feed.getLastSequence());
+	}
+
+	@Test
+	void compactionKeepsLatestChangePerTutorial() {
+		TutorialChangeLog log = new TutorialChangeLog(4, Duration.ofHours(1));
+		long start = log.getLastSequence();
+		log.append(TutorialChange.Type.CREATED, 1, new Tutorial("a", "a", false));
+		log.append(TutorialChange.Type.UPDATED, 1, new Tutorial("a", "a", true));
+		log.append(TutorialChange.Type.UPDATED, 1, new Tutorial("a2", "a", true));
+		log.append(TutorialChange.Type.CREATED, 2, new Tutorial("b", "b", false));
+		log.append(TutorialChange.Type.UPDATED, 2, new Tutorial("b", "b", true));
+
+		TutorialChangeFeed feed = log.since(start, 100);
+
+		assertFalse(feed.isResetRequired());
+		assertEquals(2, feed.getChanges().size());
+		assertEquals("a2", feed.getChanges().get(0).getTutorial().getTitle());
+		assertEquals(start + 5, feed.getChanges().get(1).getSequence());
+	}
+
+	@Test
+	void requiresResetWhenHistoryWasEvicted() {
+		TutorialChangeLog log = new TutorialChangeLog(4, Duration.ofHours(1));
+		long start = log.getLastSequence();
+		for (int i = 1; i <= 5; i++) {
+			log.append(TutorialChange.Type.CREATED, i, new Tutorial("t" + i, "d", false));
+		}
+
+		assertTrue(log.since(start, 100).isResetRequired());
+		assertTrue(log.since(start + 99, 100).isResetRequired());
+		assertFalse(log.since(start + 5, 100).isResetRequired());
+	}
+
+	@Test
+	void sequencesKeepGrowingAcrossRestarts() throws InterruptedException {
+		TutorialChangeLog before = new TutorialChangeLog(100, Duration.ofHours(1));
+		for (int i = 1; i <= 5; i++) {
+			before.append(TutorialChange.Type.CREATED, i, new Tutorial("t" + i, "d", false));
+		}
+		long consumerSince = before.getLastSequence();
+		Thread.sleep(2);
+
+		TutorialChangeLog after = new TutorialChangeLog(100, Duration.ofHours(1));
+		for (int i = 1; i <= 10; i++) {
+			after.append(TutorialChange.Type.CREATED, i, new Tutorial("t" + i, "d", false));
+		}
+
+		assertTrue(after.getLastSequence() > consumerSince);
+		assertTrue(after.since(consumerSince, 100).isResetRequired());
+		assertTrue(after.since(0, 100).isResetRequired());
+	}
+
+	@Test
+	void writesOnDifferentTutorialsDoNotWaitForEachOther() throws Exception {
+		TutorialChangeLog log = new TutorialChangeLog(100, Duration.ofHours(1));
+		CountDownLatch inside = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Integer> slow = CompletableFuture.supplyAsync(() -> log.write(1, () -> {
+			inside.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return 1;
+		}));
+		assertTrue(inside.await(1, TimeUnit.SECONDS));
+
+		// Un altro tutorial procede mentre il primo è fermo nella sua scrittura
+		assertEquals(2, CompletableFuture.supplyAsync(() -> log.write(2, () -> 2)).get(1, TimeUnit.SECONDS));
+		// La cancellazione totale invece aspetta
+		CompletableFuture<Integer> deleteAll = CompletableFuture.supplyAsync(() -> log.writeAll(() -> 3));
+		Thread.sleep(100);
+		assertFalse(deleteAll.isDone());
+
+		release.countDown();
+		assertEquals(1, slow.get(1, TimeUnit.SECONDS));
+		assertEquals(3, deleteAll.get(1, TimeUnit.SECONDS));
+	}
+
+}
@@ -0,0 +1,113 @@
+package com.giuseppe.spring.jdbc.mysql.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.giuseppe.spring.jdbc.mysql.model.Tutorial;
+import com.giuseppe.spring.jdbc.mysql.model.TutorialChange;
+import com.giuseppe.spring.jdbc.mysql.model.TutorialChangeFeed;
+import com.giuseppe.spring.jdbc.mysql.repository.TutorialChangeLog;
+
+class TutorialChangeServiceImplTests {
+
+	private TutorialChangeLog changeLog;
+	private TutorialChangeServiceImpl changeService;
+
+	@BeforeEach
+	void setUp() {
+		changeLog = new TutorialChangeLog(100, Duration.ofHours(1));
+		changeService = new TutorialChangeServiceImpl(changeLog, 2);
+	}
+
+	@AfterEach
+	void tearDown() {
+		changeService.shutdown();
+	}
+
+	@Test
+	void longPollWakesUpOnWrite() throws Exception {
+		long since = changeLog.getLastSequence();
+		CompletableFuture<TutorialChangeFeed> poll = changeService.awaitChanges(since, 100, Duration.ofSeconds(10));
+		assertFalse(poll.isDone());
+
+		changeLog.append(TutorialChange.Type.CREATED, 1, new Tutorial("a", "a", false));
+
+		TutorialChangeFeed feed = poll.get(1, TimeUnit.SECONDS);
+		assertEquals(1, feed.getChanges().size());
+		assertEquals(since + 1, feed.getLastSequence());
+		assertEquals(0, changeService.pendingTimeouts(), "the timeout timer must be cancelled");
+	}
+
+	@Test
+	void longPollReturnsImmediatelyWhenChangesAreAlreadyThere() throws Exception {
+		long since = changeLog.getLastSequence();
+		changeLog.append(TutorialChange.Type.CREATED, 1, new Tutorial("a", "a", false));
+
+		CompletableFuture<TutorialChangeFeed> poll = changeService.awaitChanges(since, 100, Duration.ofSeconds(10));
+
+		assertTrue(poll.isDone());
+		assertEquals(1, poll.get().getChanges().size());
+	}
+
+	@Test
+	void longPollWithoutChangesReturnsEmptyFeedAtTimeout() throws Exception {
+		long since = changeLog.getLastSequence();
+		long start = System.nanoTime();
+
+		TutorialChangeFeed feed = changeService.awaitChanges(since, 100, Duration.ofMillis(200))
+				.get(2, TimeUnit.SECONDS);
+
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+		assertFalse(feed.isResetRequired());
+		assertTrue(feed.getChanges().isEmpty());
+		assertEquals(since, feed.getLastSequence());
+	}
+
+	@Test
+	void notificationsForABusyListenerAreCoalesced() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		changeService.addListener(() -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			calls.incrementAndGet();
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			running.decrementAndGet();
+		});
+
+		changeLog.append(TutorialChange.Type.CREATED, 1, new Tutorial("a", "a", false));
+		assertTrue(started.await(1, TimeUnit.SECONDS));
+		// Il listener è bloccato, come un client SSE che non legge: le scritture successive non accodano altro
+		for (int i = 0; i < 50; i++) {
+			changeLog.append(TutorialChange.Type.UPDATED, 1, new Tutorial("a", "a" + i, false));
+		}
+		release.countDown();
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+		while (calls.get() < 2 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		Thread.sleep(100);
+		assertEquals(2, calls.get(), "one blocked run plus one coalesced run");
+		assertEquals(1, maxRunning.get(), "a listener never runs concurrently with itself");
+	}
+
+}